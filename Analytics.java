@@ -0,0 +1,138 @@
+/**
+Counts the valid loadouts and how their keystat totals are distributed without enumerating them ("java Optimizer --analyze").
+The keystat total of a loadout is the sum of its items' keystat scores, so the distribution over all slots is the convolution of the per-slot score distributions.
+To keep exclusions exact, the convolution is split by the exclusions of the items chosen so far: an item can only follow the earlier slots if none of its groups are excluded by them (same rule as Calculator.run()).
+The cost grows with slots * exclusion cases * score range instead of with the number of loadouts.
+With weights or priority levels, the keystat total is the weighted total of the highest priority level (see Objective).
+Items are counted before Optimizer.optimize() would remove inferior ones, so every valid loadout of the catalog is counted.
+*/
+
+import java.util.*;
+import java.io.*;
+
+class Analytics {
+	final static int MAX_SCORE_RANGE = 1 << 20; //number of distinct keystat totals a distribution can hold
+	public static void analyze() {
+		CompiledQuery query = new CompiledQuery(Optimizer.sortedList, Optimizer.allStatNames, Optimizer.objective);
+		if(query.groupMasks == null) {
+			System.out.println("Analytics supports at most 64 item groups; " + query.groupNames.size() + " are in use.");
+			return;
+		}
+		//scores are stored as offsets from the lowest possible score so far
+		long[] slotMinimums = new long[query.slotCount];
+		long minimumTotal = 0;
+		long scoreRange = 1;
+		for(int i = 0; i < query.slotCount; i++) {
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+			for(long score : query.keyScores[i]) {
+				min = Math.min(min, score);
+				max = Math.max(max, score);
+			}
+			slotMinimums[i] = min;
+			minimumTotal += min;
+			scoreRange += max - min;
+		}
+		//every keystat total gets a counter in each exclusion case, so weighted totals can span too many values to count
+		if(scoreRange > MAX_SCORE_RANGE) {
+			System.out.println("Keystat totals span " + scoreRange + " values; analytics supports at most " + MAX_SCORE_RANGE + ". Use smaller weights.");
+			return;
+		}
+		int range = (int) scoreRange;
+		//score distribution of the slots processed so far for each combination of excluded groups
+		HashMap<Long, long[]> cases = new HashMap<Long, long[]>();
+		long[] start = new long[range];
+		start[0] = 1;
+		cases.put(0L, start);
+		for(int i = 0; i < query.slotCount; i++) {
+			//score distribution of the slot's items for each (groups, exclusions) pair
+			HashMap<String, long[]> slotDistributions = new HashMap<String, long[]>();
+			HashMap<String, long[]> slotMasks = new HashMap<String, long[]>();
+			for(int j = 0; j < query.itemCount(i); j++) {
+				long[] masks = {query.groupMasks[i][j], query.exclusionMasks[i][j]};
+				String key = masks[0] + ";" + masks[1];
+				if(!slotDistributions.containsKey(key)) {
+					slotDistributions.put(key, new long[range]);
+					slotMasks.put(key, masks);
+				}
+				//an item stands in for its equivalent alternatives as well
+				slotDistributions.get(key)[(int) (query.keyScores[i][j] - slotMinimums[i])] += 1 + Optimizer.sortedList.get(i).get(j).getAlternatives().size();
+			}
+			HashMap<Long, long[]> nextCases = new HashMap<Long, long[]>();
+			for(Map.Entry<Long, long[]> c : cases.entrySet()) {
+				long excluded = c.getKey();
+				for(String key : slotDistributions.keySet()) {
+					long[] masks = slotMasks.get(key);
+					if((masks[0] & excluded) != 0) { //item belongs to a group excluded by an earlier slot
+						continue;
+					}
+					long nextExcluded = excluded | masks[1];
+					if(!nextCases.containsKey(nextExcluded)) {
+						nextCases.put(nextExcluded, new long[range]);
+					}
+					convolve(c.getValue(), slotDistributions.get(key), nextCases.get(nextExcluded));
+				}
+			}
+			cases = nextCases;
+		}
+		//combine all cases
+		long[] distribution = new long[range];
+		for(long[] d : cases.values()) {
+			for(int i = 0; i < range; i++) {
+				distribution[i] = Math.addExact(distribution[i], d[i]);
+			}
+		}
+		printDistribution(distribution, minimumTotal);
+	}
+
+	//adds the distribution of a + b to result
+	private static void convolve(long[] a, long[] b, long[] result) {
+		for(int i = 0; i < a.length; i++) {
+			if(a[i] == 0) {
+				continue;
+			}
+			for(int j = 0; i + j < result.length; j++) {
+				if(b[j] != 0) {
+					result[i + j] = Math.addExact(result[i + j], Math.multiplyExact(a[i], b[j]));
+				}
+			}
+		}
+	}
+
+	//outputs the distribution both on-screen and to file (results.txt), highest score first
+	private static void printDistribution(long[] distribution, long minimumTotal) {
+		long total = 0;
+		for(long count : distribution) {
+			total += count;
+		}
+		try(PrintWriter output = new PrintWriter("results.txt")) {
+			System.out.println();
+			System.out.println("ANALYTICS");
+			output.println("ANALYTICS");
+			System.out.println("----------------------------");
+			output.println("----------------------------");
+			System.out.println("Valid loadouts: " + total);
+			output.println("Valid loadouts: " + total);
+			//only the highest priority level is counted, so lower levels and their stats are left out
+			String keystatTotal = Optimizer.objective.describePrimary(Optimizer.allStatNames);
+			System.out.println("Keystat total: " + keystatTotal);
+			output.println("Keystat total: " + keystatTotal);
+			System.out.println();
+			output.println();
+			System.out.println("keystat total;loadouts;loadouts at or above");
+			output.println("keystat total;loadouts;loadouts at or above");
+			long atOrAbove = 0;
+			for(int i = distribution.length - 1; i >= 0; i--) {
+				if(distribution[i] == 0) {
+					continue;
+				}
+				atOrAbove += distribution[i];
+				String line = (i + minimumTotal) + ";" + distribution[i] + ";" + atOrAbove;
+				System.out.println(line);
+				output.println(line);
+			}
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
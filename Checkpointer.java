@@ -0,0 +1,116 @@
+/**
+Saves the progress of a running search every CHECKPOINT_SECONDS so that it can be continued with "java Optimizer --resume [file]".
+The search threads only copy their state every Calculator.CHECKPOINT_INTERVAL permutations; this thread does the file writing.
+The file is written to a temporary file first and then moved over the old checkpoint, so a killed run always leaves a complete checkpoint behind.
+
+CHECKPOINT FILE FORMAT
+----------------
+CATALOG;hash of items.csv
+query as written by Optimizer.writeQuery()
+THREAD;position;endingRank;best permutation (or none)   (one line per thread)
+*/
+
+import java.util.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+public class Checkpointer extends Thread {
+	final static String CHECKPOINT_FILE = "checkpoint.txt"; //used by new searches and by --resume when no file is given
+	final static int CHECKPOINT_SECONDS = 60;
+	private ArrayList<Calculator> threads;
+	private String catalogHash;
+	private String fileName;
+
+	public Checkpointer(ArrayList<Calculator> threads, String fileName) {
+		this.threads = threads;
+		this.fileName = fileName;
+		this.catalogHash = catalogHash();
+		setDaemon(true);
+	}
+
+	public void run() {
+		while(true) {
+			try {
+				Thread.sleep(CHECKPOINT_SECONDS * 1000L);
+			} catch(InterruptedException e) {
+				return;
+			}
+			write();
+		}
+	}
+
+	//stops checkpointing and removes the checkpoint once the search is complete
+	public void finish() {
+		interrupt();
+		try {
+			join(); //wait for a write in progress so it cannot recreate the file
+		} catch(InterruptedException e) {
+			//do nothing
+		}
+		try {
+			Files.deleteIfExists(Paths.get(this.fileName));
+		} catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void write() {
+		Path target = Paths.get(this.fileName);
+		Path temp = Paths.get(this.fileName + ".tmp");
+		try(PrintWriter output = new PrintWriter(temp.toFile())) {
+			output.println("CATALOG;" + this.catalogHash);
+			Optimizer.writeQuery(output);
+			for(Calculator c : this.threads) {
+				output.println("THREAD;" + c.getProgressLine());
+			}
+		} catch(IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		try {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	//returns the calculators saved in a checkpoint, or null if the checkpoint cannot be used
+	public static ArrayList<Calculator> load(String fileName) {
+		ArrayList<String[]> progressLines = new ArrayList<String[]>();
+		try(BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+			String line = br.readLine();
+			if(line == null || !line.equals("CATALOG;" + catalogHash())) {
+				System.out.println("items.csv has changed since " + fileName + " was written; the search cannot be resumed.");
+				return null;
+			}
+			Optimizer.readQuery(br);
+			while((line = br.readLine()) != null) {
+				if(line.startsWith("THREAD;")) {
+					progressLines.add(line.split(";"));
+				}
+			}
+		} catch(IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		ArrayList<Calculator> threads = new ArrayList<Calculator>();
+		for(String[] fields : progressLines) {
+			long position = Long.parseLong(fields[1]);
+			Calculator c = new Calculator(Optimizer.slots, Optimizer.allStatNames, Optimizer.sortedList, Optimizer.objective, position, Long.parseLong(fields[2]));
+			c.resume(position, fields[3].equals("none") ? null : Optimizer.parseInts(fields[3]));
+			threads.add(c);
+		}
+		return threads;
+	}
+
+	//CRC32 of the lines of items.csv
+	public static String catalogHash() {
+		CRC32 crc = new CRC32();
+		for(String line : Optimizer.readFile()) {
+			crc.update(line.getBytes());
+			crc.update('\n');
+		}
+		return Long.toHexString(crc.getValue());
+	}
+}
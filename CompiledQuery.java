@@ -0,0 +1,183 @@
+/**
+Primitive copy of the processed query for search modes that cannot afford string comparisons in their inner loops.
+Every item is reduced to its stats (in allStatNames order), its packed objective score, its keystat total, and bit masks of its groups and exclusions.
+Only groups that some item belongs to get a bit, since excluding any other group cannot make a loadout invalid; if more than 64 groups are used, the masks are left null and conflicts are checked on the group names instead.
+*/
+
+import java.util.*;
+
+class CompiledQuery {
+	int slotCount;
+	int statCount;
+	int[][][] stats; //[slot][item][stat] in allStatNames order
+	long[][] scores; //[slot][item] packed objective score; the loadout with the higher sum is better (see Objective.pack())
+	long[][] keyScores; //[slot][item] weighted total of the item's stats in the objective's highest priority level
+	long[][] groupMasks; //[slot][item] one bit per group in groupNames, or null if there are more than 64 groups
+	long[][] exclusionMasks; //[slot][item] one bit per group in groupNames, or null if there are more than 64 groups
+	ArrayList<String> groupNames = new ArrayList<String>(); //every group some item belongs to
+	private int[] slotSizes;
+	private ArrayList<ArrayList<Item>> sortedList;
+
+	public CompiledQuery(ArrayList<ArrayList<Item>> sortedList, ArrayList<String> allStatNames, Objective objective) {
+		this.slotCount = sortedList.size();
+		this.statCount = allStatNames.size();
+		this.sortedList = sortedList;
+		this.stats = new int[slotCount][][];
+		this.keyScores = new long[slotCount][];
+		this.slotSizes = new int[slotCount];
+		for(int i = 0; i < slotCount; i++) {
+			int itemCount = sortedList.get(i).size();
+			this.slotSizes[i] = itemCount;
+			this.stats[i] = new int[itemCount][statCount];
+			this.keyScores[i] = new long[itemCount];
+			for(int j = 0; j < itemCount; j++) {
+				Item item = sortedList.get(i).get(j);
+				for(Stat s : item.getStats()) {
+					this.stats[i][j][allStatNames.indexOf(s.getName())] += s.getAmount();
+				}
+				this.keyScores[i][j] = objective.primaryScore(this.stats[i][j]);
+				for(String s : item.getGroups()) {
+					if(!this.groupNames.contains(s)) {
+						this.groupNames.add(s);
+					}
+				}
+			}
+		}
+		this.scores = objective.pack(this.stats);
+		if(this.groupNames.size() <= 64) {
+			this.groupMasks = new long[slotCount][];
+			this.exclusionMasks = new long[slotCount][];
+			for(int i = 0; i < slotCount; i++) {
+				int itemCount = sortedList.get(i).size();
+				this.groupMasks[i] = new long[itemCount];
+				this.exclusionMasks[i] = new long[itemCount];
+				for(int j = 0; j < itemCount; j++) {
+					this.groupMasks[i][j] = groupMask(sortedList.get(i).get(j).getGroups());
+					this.exclusionMasks[i][j] = groupMask(sortedList.get(i).get(j).getExclusions());
+				}
+			}
+		}
+	}
+
+	//one bit per name in groupNames; names of groups no item belongs to are left out
+	private long groupMask(ArrayList<String> groups) {
+		long mask = 0;
+		for(String s : groups) {
+			int index = this.groupNames.indexOf(s);
+			if(index >= 0) {
+				mask |= 1L << index;
+			}
+		}
+		return mask;
+	}
+
+	public int itemCount(int slot) {
+		return this.slotSizes[slot];
+	}
+
+	//advances permutation to the next permutation rank (see Calculator.decodeRank()); the last permutation wraps around to the first
+	public void next(int[] permutation) {
+		for(int i = this.slotCount - 1; i >= 0; i--) { //works from the last item in permutation and progresses backward
+			//increase the last digit in the permutation
+			permutation[i]++;
+			//if out of range of possible permutative values, reset to 0; if in range, exit loop
+			if(permutation[i] >= this.slotSizes[i]) {
+				permutation[i] = 0;
+			} else {
+				break; //stops incrementation if current incrementation is within range
+			}
+		}
+	}
+
+	//same rule as Calculator.run(): an item's exclusions conflict with the groups of items in later slots
+	public boolean conflicts(int slotA, int itemA, int slotB, int itemB) {
+		if(slotA > slotB) {
+			return conflicts(slotB, itemB, slotA, itemA);
+		}
+		if(this.groupMasks == null) {
+			ArrayList<String> groups = this.sortedList.get(slotB).get(itemB).getGroups();
+			for(String s : this.sortedList.get(slotA).get(itemA).getExclusions()) {
+				if(groups.contains(s)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return (this.exclusionMasks[slotA][itemA] & this.groupMasks[slotB][itemB]) != 0;
+	}
+
+	//true if item can replace permutation[slot] without conflicting with the items in the other slots
+	public boolean fits(int[] permutation, int slot, int item) {
+		for(int i = 0; i < this.slotCount; i++) {
+			if(i != slot && conflicts(i, permutation[i], slot, item)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//true if no item belongs to a group excluded by an item in an earlier slot
+	public boolean isValid(int[] permutation) {
+		if(this.groupMasks == null) { //more than 64 groups; compare group names instead
+			return isValidByName(permutation);
+		}
+		long excludedGroups = 0;
+		for(int i = 0; i < this.slotCount; i++) {
+			if((this.groupMasks[i][permutation[i]] & excludedGroups) != 0) {
+				return false;
+			}
+			excludedGroups |= this.exclusionMasks[i][permutation[i]];
+		}
+		return true;
+	}
+
+	private boolean isValidByName(int[] permutation) {
+		for(int i = 0; i < this.slotCount; i++) {
+			for(int j = i + 1; j < this.slotCount; j++) {
+				if(conflicts(i, permutation[i], j, permutation[j])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public long score(int[] permutation) {
+		long score = 0;
+		for(int i = 0; i < this.slotCount; i++) {
+			score += this.scores[i][permutation[i]];
+		}
+		return score;
+	}
+
+	public long keyScore(int[] permutation) {
+		long score = 0;
+		for(int i = 0; i < this.slotCount; i++) {
+			score += this.keyScores[i][permutation[i]];
+		}
+		return score;
+	}
+
+	public int[] totalStats(int[] permutation) {
+		int[] total = new int[this.statCount];
+		for(int i = 0; i < this.slotCount; i++) {
+			for(int j = 0; j < this.statCount; j++) {
+				total[j] += this.stats[i][permutation[i]][j];
+			}
+		}
+		return total;
+	}
+
+	//highest keyScore() any loadout could reach if there were no exclusions
+	public long keyScoreUpperBound() {
+		long bound = 0;
+		for(int i = 0; i < this.slotCount; i++) {
+			long best = Long.MIN_VALUE;
+			for(long score : this.keyScores[i]) {
+				best = Math.max(best, score);
+			}
+			bound += best;
+		}
+		return bound;
+	}
+}
@@ -0,0 +1,150 @@
+/**
+Splits the permutation space into ranges of mixed-radix ranks [startRank, endRank) and hands them out to worker processes over a local socket.
+Workers are started with "java Optimizer --worker [port]" and may join or die at any time; a range whose worker disconnects or does not answer within RESULT_TIMEOUT_SECONDS is handed to the next worker.
+The best result of every answered range is merged and output once all ranges are answered.
+
+PROTOCOL (one message per line)
+--------------------
+coordinator -> worker: STATS;stat;stat;...  OBJECTIVE;priorities  SLOTS;slot;slot;...  ITEM;<items.csv line> (once per item, followed by ALTERNATIVES;name;... if it has equivalent items)  END
+coordinator -> worker: RANGE;startRank;endRank  or  DONE
+worker -> coordinator: RESULT;startRank;endRank;slot index,slot index,... (or none if the range has no valid loadout)
+*/
+
+import java.util.*;
+import java.io.*;
+import java.net.*;
+
+public class Coordinator {
+	final static int RANGE_COUNT = 1024; //number of work units the permutation space is split into
+	final static int PROGRESS_INTERVAL = 64; //answered ranges between progress lines
+	final static int RESULT_TIMEOUT_SECONDS = 600; //a worker that takes longer than this to answer a range is treated as hung
+	private ArrayDeque<long[]> pendingRanges = new ArrayDeque<long[]>();
+	private int unansweredRanges; //ranges that are pending or currently held by a worker
+	private Calculator merged; //never started; only used to merge and print results
+
+	public Coordinator(long permutationCount) {
+		//split the permutation space into RANGE_COUNT ranges (fewer if there are fewer permutations)
+		long rangeSize = Math.max(1, (permutationCount + RANGE_COUNT - 1) / RANGE_COUNT);
+		for(long start = 0; start < permutationCount; start += rangeSize) {
+			pendingRanges.add(new long[] {start, Math.min(start + rangeSize, permutationCount)});
+		}
+		this.unansweredRanges = pendingRanges.size();
+		this.merged = new Calculator(Optimizer.slots, Optimizer.allStatNames, Optimizer.sortedList, Optimizer.objective, 0, 0);
+	}
+
+	public void run(int port) {
+		try(ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			System.out.println("Waiting for workers on port " + port + " (" + unansweredRanges + " ranges)");
+			//accept workers until every range has been answered
+			server.setSoTimeout(1000);
+			while(!isFinished()) {
+				try {
+					new WorkerConnection(this, server.accept()).start();
+				} catch(SocketTimeoutException e) {
+					//check again whether all ranges have been answered
+				}
+			}
+		} catch(IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		merged.printBest();
+	}
+
+	public synchronized boolean isFinished() {
+		return unansweredRanges == 0;
+	}
+
+	//blocks until a range is available; returns null once all ranges have been answered
+	public synchronized long[] takeRange() {
+		while(pendingRanges.isEmpty() && unansweredRanges > 0) {
+			try {
+				wait();
+			} catch(InterruptedException e) {
+				return null;
+			}
+		}
+		return pendingRanges.poll();
+	}
+
+	//puts a range whose worker died back at the front of the queue
+	public synchronized void returnRange(long[] range) {
+		pendingRanges.addFirst(range);
+		notifyAll();
+	}
+
+	//permutation is null if the range had no valid loadout
+	public synchronized void completeRange(int[] permutation) {
+		if(permutation != null) {
+			merged.merge(permutation);
+		}
+		unansweredRanges--;
+		//report progress every PROGRESS_INTERVAL ranges
+		if(unansweredRanges % PROGRESS_INTERVAL == 0) {
+			System.out.println(unansweredRanges + " ranges remaining");
+		}
+		notifyAll();
+	}
+}
+
+//serves a single worker process on behalf of the coordinator
+class WorkerConnection extends Thread {
+	private Coordinator coordinator;
+	private Socket socket;
+
+	public WorkerConnection(Coordinator coordinator, Socket socket) {
+		this.coordinator = coordinator;
+		this.socket = socket;
+	}
+
+	public void run() {
+		long[] range = null;
+		try(Socket s = this.socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream()));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream()), true)) {
+			s.setSoTimeout(Coordinator.RESULT_TIMEOUT_SECONDS * 1000); //readLine() throws SocketTimeoutException if a worker stalls
+			Optimizer.writeQuery(out);
+			while((range = coordinator.takeRange()) != null) {
+				out.println("RANGE;" + range[0] + ";" + range[1]);
+				String line = in.readLine();
+				if(line == null) {
+					throw new IOException("worker disconnected");
+				}
+				//RESULT;startRank;endRank;permutation
+				String[] fields = line.split(";");
+				if(fields.length != 4 || !fields[0].equals("RESULT") || Long.parseLong(fields[1]) != range[0] || Long.parseLong(fields[2]) != range[1]) {
+					throw new IOException("unexpected reply from worker: " + line);
+				}
+				int[] permutation = null;
+				if(!fields[3].equals("none")) {
+					permutation = Optimizer.parseInts(fields[3]);
+					if(!isPermutation(permutation)) {
+						throw new IOException("invalid loadout from worker: " + line);
+					}
+				}
+				coordinator.completeRange(permutation);
+				range = null;
+			}
+			out.println("DONE");
+		} catch(IOException | NumberFormatException e) {
+			//hand the unanswered range to another worker
+			if(range != null) {
+				System.out.println("Worker lost, reassigning range " + range[0] + "-" + range[1]);
+				coordinator.returnRange(range);
+			}
+		}
+	}
+
+	//true if permutation has one index per slot and each index is an item of that slot
+	private static boolean isPermutation(int[] permutation) {
+		if(permutation.length != Optimizer.sortedList.size()) {
+			return false;
+		}
+		for(int i = 0; i < permutation.length; i++) {
+			if(permutation[i] < 0 || permutation[i] >= Optimizer.sortedList.get(i).size()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
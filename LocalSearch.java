@@ -0,0 +1,195 @@
+/**
+Approximate search for catalogs too large for Calculator ("java Optimizer --approximate [seconds] [swaps]").
+Each thread starts from the greedy loadout (in each slot, the highest scoring item that does not conflict with the slots before it) and improves it with simulated annealing over single-slot swaps.
+Swaps are judged by the objective's packed score: swaps that do not lower it are always taken, others with a probability that falls with the temperature and the loss in the highest priority level (the keystat total).
+A swap that only loses in lower priority levels counts as the smallest keystat loss a swap can cause, so annealing also improves the lower levels.
+Every restart after the first begins from the greedy loadout with a few random slots changed; swaps that would break an exclusion are never made.
+The search stops when either the time budget or the swap budget (split evenly over the threads) runs out; results are ordered the same way as Calculator results.
+*/
+
+import java.util.*;
+import java.io.*;
+
+class LocalSearch extends Thread {
+	final static long DEFAULT_ITERATIONS = 1000000000L * Optimizer.THREAD_COUNT; //swap budget over all threads when none is given
+	final static int RESTART_LENGTH = 200000; //iterations per annealing run
+	final static int PERTURBED_SLOTS = 2; //slots changed at random at the start of each restart
+	final static double END_TEMPERATURE = 0.05;
+	private CompiledQuery query;
+	private long deadline;
+	private long iterationBudget; //swaps this thread may try
+	private Random random;
+	private boolean startGreedy; //true if the first restart should use the unchanged greedy loadout
+	private int[] bestPermutation;
+	private long bestScore;
+	private boolean found = false;
+	private long iterations = 0;
+
+	public LocalSearch(CompiledQuery query, long deadline, long iterationBudget, long seed, boolean startGreedy) {
+		this.query = query;
+		this.deadline = deadline;
+		this.iterationBudget = iterationBudget;
+		this.random = new Random(seed);
+		this.startGreedy = startGreedy;
+		this.bestPermutation = new int[query.slotCount];
+	}
+
+	public static void search(int seconds, long swapBudget) {
+		//like the exact search, a slot without items leaves nothing to search
+		if(Calculator.countPermutations(Optimizer.sortedList) == 0) {
+			System.out.println("No valid loadout found.");
+			return;
+		}
+		CompiledQuery query = new CompiledQuery(Optimizer.sortedList, Optimizer.allStatNames, Optimizer.objective);
+		long deadline = System.currentTimeMillis() + seconds * 1000L;
+		ArrayList<LocalSearch> threads = new ArrayList<LocalSearch>();
+		for(int i = 0; i < Optimizer.THREAD_COUNT; i++) {
+			//the first thread also takes the remainder of the division
+			long threadIterations = swapBudget / Optimizer.THREAD_COUNT + (i == 0 ? swapBudget % Optimizer.THREAD_COUNT : 0);
+			threads.add(new LocalSearch(query, deadline, threadIterations, System.nanoTime() + i, i == 0));
+		}
+		for(LocalSearch l : threads) {
+			l.start();
+		}
+		for(LocalSearch l : threads) {
+			try {
+				l.join();
+			} catch(InterruptedException e) {
+				//do nothing
+			}
+		}
+		//merge thread results and output them the same way as an exact search
+		Calculator merged = new Calculator(Optimizer.slots, Optimizer.allStatNames, Optimizer.sortedList, Optimizer.objective, 0, 0);
+		long iterations = 0;
+		boolean found = false;
+		for(LocalSearch l : threads) {
+			iterations += l.iterations;
+			if(l.found) {
+				found = true;
+				merged.merge(l.bestPermutation);
+			}
+		}
+		if(!found) {
+			System.out.println("No valid loadout found.");
+			return;
+		}
+		merged.printBest();
+		//report how far the result can be from the best possible loadout
+		long bound = query.keyScoreUpperBound();
+		long keyScore = query.keyScore(merged.getBestPermutation());
+		long gap = bound - keyScore;
+		String summary = "Approximate result after " + iterations + " swaps: keystat total " + keyScore + ", upper bound " + bound + ", gap " + gap;
+		if(bound > 0) {
+			summary += " (" + (100 * gap / bound) + "%)";
+		}
+		System.out.println();
+		System.out.println(summary);
+		try(PrintWriter output = new PrintWriter(new FileWriter("results.txt", true))) {
+			output.println();
+			output.println(summary);
+		} catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	//in each slot, the highest scoring item that does not conflict with the items already chosen
+	public static int[] greedy(CompiledQuery query) {
+		int[] permutation = new int[query.slotCount];
+		for(int i = 0; i < query.slotCount; i++) {
+			int best = -1;
+			for(int j = 0; j < query.itemCount(i); j++) {
+				boolean fits = true;
+				for(int k = 0; k < i; k++) {
+					if(query.conflicts(k, permutation[k], i, j)) {
+						fits = false;
+						break;
+					}
+				}
+				if(fits && (best < 0 || query.scores[i][j] > query.scores[i][best])) {
+					best = j;
+				}
+			}
+			permutation[i] = Math.max(best, 0); //if every item conflicts, annealing has to repair the loadout
+		}
+		return permutation;
+	}
+
+	public void run() {
+		int slotCount = query.slotCount;
+		int[] greedy = greedy(query);
+		int[] current = new int[slotCount];
+		//temperatures are in units of the smallest nonzero single-slot loss in keystats, which is also what a loss only in lower priority levels counts as
+		//start hot enough to accept the largest single-slot loss in keystats
+		long largestLoss = 0;
+		long smallestLoss = Long.MAX_VALUE;
+		for(int i = 0; i < slotCount; i++) {
+			long[] sortedScores = query.keyScores[i].clone();
+			Arrays.sort(sortedScores);
+			largestLoss = Math.max(largestLoss, sortedScores[sortedScores.length - 1] - sortedScores[0]);
+			for(int j = 1; j < sortedScores.length; j++) {
+				if(sortedScores[j] > sortedScores[j - 1]) {
+					smallestLoss = Math.min(smallestLoss, sortedScores[j] - sortedScores[j - 1]);
+				}
+			}
+		}
+		if(smallestLoss == Long.MAX_VALUE) { //every item in every slot has the same keystat total
+			smallestLoss = 1;
+		}
+		double startTemperature = Math.max(1, (double) largestLoss / smallestLoss);
+		double cooling = Math.pow(END_TEMPERATURE / startTemperature, 1.0 / RESTART_LENGTH);
+		boolean outOfTime = false;
+		for(int restart = 0; !outOfTime && iterations < iterationBudget; restart++) {
+			System.arraycopy(greedy, 0, current, 0, slotCount);
+			if(restart > 0 || !startGreedy) {
+				for(int i = 0; i < PERTURBED_SLOTS; i++) {
+					int slot = random.nextInt(slotCount);
+					int item = random.nextInt(query.itemCount(slot));
+					if(query.fits(current, slot, item)) {
+						current[slot] = item;
+					}
+				}
+			}
+			long score = query.score(current);
+			boolean valid = query.isValid(current);
+			if(valid) {
+				offer(current, score);
+			}
+			double temperature = startTemperature;
+			for(int step = 0; step < RESTART_LENGTH && iterations < iterationBudget; step++, iterations++) {
+				if((step & 1023) == 0 && System.currentTimeMillis() >= deadline) {
+					outOfTime = true;
+					break;
+				}
+				temperature *= cooling;
+				int slot = random.nextInt(slotCount);
+				int item = random.nextInt(query.itemCount(slot));
+				int old = current[slot];
+				if(item == old || !query.fits(current, slot, item)) {
+					continue;
+				}
+				long scoreDelta = query.scores[slot][item] - query.scores[slot][old];
+				long keyDelta = query.keyScores[slot][item] - query.keyScores[slot][old];
+				//always take swaps that do not lower the score; take losing swaps less often as the temperature drops
+				//a lower score never has a higher keystat total, so keyDelta is 0 when only lower priority levels lose
+				if(scoreDelta >= 0 || random.nextDouble() < Math.exp((double) Math.min(keyDelta, -smallestLoss) / smallestLoss / temperature)) {
+					current[slot] = item;
+					score += scoreDelta;
+					if(!valid) {
+						valid = query.isValid(current);
+					}
+					if(valid) {
+						offer(current, score);
+					}
+				}
+			}
+		}
+	}
+
+	private void offer(int[] permutation, long score) {
+		if(!found || score > bestScore) {
+			System.arraycopy(permutation, 0, bestPermutation, 0, permutation.length);
+			bestScore = score;
+			found = true;
+		}
+	}
+}
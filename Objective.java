@@ -0,0 +1,186 @@
+/**
+What makes one loadout better than another, as entered at the priorities prompt.
+
+PRIORITIES FORMAT
+----------------
+1,4         maximize stat 1 + stat 4
+1*3,4       maximize 3 * stat 1 + stat 4 (accounts for stats of differing magnitude; weights are positive, use - to minimize)
+-6          minimize stat 6
+1,4>2>-6    priority levels: compare stat 1 + stat 4 first, then stat 2 on a tie, then the lowest stat 6
+
+Ties left after the last priority level are broken by the total of all stats.
+Before searching, the objective is compiled into one long score per item (see pack()), so comparing two loadouts is a single comparison of the sums of their item scores.
+*/
+
+import java.util.*;
+
+class Objective {
+	private String description; //the priorities as entered
+	private ArrayList<int[]> tiers = new ArrayList<int[]>(); //stat weights in allStatNames order, highest priority first
+	private ArrayList<String> statNames = new ArrayList<String>(); //stats with a weight in any tier, in the order they were entered
+	private ArrayList<Integer> statSigns = new ArrayList<Integer>(); //-1 if the stat in statNames was first entered as minimized, otherwise 1
+
+	//throws IllegalArgumentException (including NumberFormatException) if description is not in the format above, ArithmeticException if a weight overflows
+	public Objective(String description, ArrayList<String> allStatNames) {
+		this.description = description.trim();
+		for(String tier : this.description.split(">")) {
+			int[] weights = new int[allStatNames.size()];
+			for(String entry : tier.split(",")) {
+				entry = entry.trim();
+				int sign = 1;
+				if(entry.startsWith("-")) { //minimized stat
+					sign = -1;
+					entry = entry.substring(1).trim();
+				}
+				int weight = 1;
+				if(entry.contains("*")) {
+					weight = Integer.valueOf(entry.substring(entry.indexOf("*") + 1).trim());
+					entry = entry.substring(0, entry.indexOf("*")).trim();
+					if(weight < 1) {
+						throw new IllegalArgumentException("weights must be positive");
+					}
+				}
+				int stat = Integer.valueOf(entry) - 1; //menu numbers start at 1
+				if(stat < 0 || stat >= allStatNames.size()) {
+					throw new IllegalArgumentException("no stat number " + entry);
+				}
+				weights[stat] = Math.addExact(weights[stat], Math.multiplyExact(sign, weight));
+				if(!this.statNames.contains(allStatNames.get(stat))) {
+					this.statNames.add(allStatNames.get(stat));
+					this.statSigns.add(sign);
+				}
+			}
+			this.tiers.add(weights);
+		}
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	public ArrayList<String> getStatNames() {
+		return this.statNames;
+	}
+
+	public ArrayList<Integer> getStatSigns() {
+		return this.statSigns;
+	}
+
+	//for each stat in allStatNames order: 1 if no priority level minimizes it, -1 if it is minimized and never maximized, 0 if it is both
+	public int[] getStatDirections() {
+		int[] directions = new int[this.tiers.get(0).length];
+		for(int i = 0; i < directions.length; i++) {
+			boolean maximized = false;
+			boolean minimized = false;
+			for(int[] weights : this.tiers) {
+				maximized |= weights[i] > 0;
+				minimized |= weights[i] < 0;
+			}
+			directions[i] = minimized ? (maximized ? 0 : -1) : 1;
+		}
+		return directions;
+	}
+
+	//weighted total of the highest priority level
+	public long primaryScore(int[] stats) {
+		return tierScore(this.tiers.get(0), stats);
+	}
+
+	//the weighted total of the highest priority level as a formula, e.g. "3*Dangerous + Persuasive - Watchful"
+	public String describePrimary(ArrayList<String> allStatNames) {
+		int[] weights = this.tiers.get(0);
+		String formula = "";
+		for(int i = 0; i < weights.length; i++) {
+			if(weights[i] == 0) {
+				continue;
+			}
+			String term = (Math.abs(weights[i]) == 1 ? "" : Math.abs(weights[i]) + "*") + allStatNames.get(i);
+			if(formula.length() == 0) {
+				formula = (weights[i] < 0 ? "-" : "") + term;
+			} else {
+				formula += (weights[i] < 0 ? " - " : " + ") + term;
+			}
+		}
+		return formula.length() == 0 ? "0" : formula;
+	}
+
+	//all objective arithmetic is exact: an overflow throws ArithmeticException instead of silently giving a wrong order, and getParams() asks for another objective
+	private static long tierScore(int[] weights, int[] stats) {
+		long score = 0;
+		for(int i = 0; i < weights.length; i++) {
+			score = Math.addExact(score, Math.multiplyExact((long) weights[i], (long) stats[i]));
+		}
+		return score;
+	}
+
+	//returns a score for every item ([slot][item], from the item stats [slot][item][stat]) such that a loadout with a higher sum of item scores is better
+	//each priority level gets its own range of bits, wide enough for every loadout's total of that level, with higher levels in higher bits
+	//the allstat tie-break is dropped if it does not fit; throws ArithmeticException if the priority levels themselves do not fit in a long
+	public long[][] pack(int[][][] stats) {
+		try {
+			return pack(stats, levelsWithTieBreak());
+		} catch(ArithmeticException e) {
+			return pack(stats, this.tiers);
+		}
+	}
+
+	//true if pack() keeps the allstat tie-break for these item stats
+	public boolean tieBreakFits(int[][][] stats) {
+		try {
+			pack(stats, levelsWithTieBreak());
+			return true;
+		} catch(ArithmeticException e) {
+			return false;
+		}
+	}
+
+	private ArrayList<int[]> levelsWithTieBreak() {
+		ArrayList<int[]> levels = new ArrayList<int[]>(this.tiers);
+		int[] allStatWeights = new int[this.tiers.get(0).length];
+		Arrays.fill(allStatWeights, 1);
+		levels.add(allStatWeights);
+		return levels;
+	}
+
+	private static long[][] pack(int[][][] stats, ArrayList<int[]> levels) {
+		//assign bits from the lowest priority level up
+		long[] multipliers = new long[levels.size()];
+		int shift = 0;
+		for(int t = levels.size() - 1; t >= 0; t--) {
+			if(shift > 62) {
+				throw new ArithmeticException("priority levels do not fit in a long");
+			}
+			multipliers[t] = 1L << shift;
+			long range = 0; //difference between the best and worst possible total of this level
+			for(int[][] slotStats : stats) {
+				long min = Long.MAX_VALUE;
+				long max = Long.MIN_VALUE;
+				for(int[] itemStats : slotStats) {
+					long score = tierScore(levels.get(t), itemStats);
+					min = Math.min(min, score);
+					max = Math.max(max, score);
+				}
+				range = Math.addExact(range, Math.subtractExact(max, min));
+			}
+			shift += 64 - Long.numberOfLeadingZeros(range);
+		}
+		//combine the levels, making sure no sum of item scores can overflow
+		long[][] scores = new long[stats.length][];
+		long bound = 0;
+		for(int i = 0; i < stats.length; i++) {
+			scores[i] = new long[stats[i].length];
+			long slotBound = 0;
+			for(int j = 0; j < stats[i].length; j++) {
+				for(int t = 0; t < levels.size(); t++) {
+					scores[i][j] = Math.addExact(scores[i][j], Math.multiplyExact(tierScore(levels.get(t), stats[i][j]), multipliers[t]));
+				}
+				slotBound = Math.max(slotBound, Math.abs(scores[i][j]));
+			}
+			bound = Math.addExact(bound, slotBound);
+		}
+		if(bound > Long.MAX_VALUE / 2) {
+			throw new ArithmeticException("priority levels do not fit in a long");
+		}
+		return scores;
+	}
+}
@@ -9,6 +9,17 @@ ITEMS.CSV FILE FORMAT
 ----------------
 name;slot;group;exclusions,exclusions;stat;amount;stat;amount;...
 
+USAGE
+----------------
+java Optimizer                        search with THREAD_COUNT local threads
+java Optimizer --coordinator [port]   hand ranges of the search to worker processes (see Coordinator)
+java Optimizer --worker [port]        evaluate ranges handed out by a coordinator on the same host
+java Optimizer --resume [file]        continue a search from the checkpoint file (checkpoint.txt by default)
+java Optimizer --approximate [secs] [swaps]
+                                      search approximately for at most secs seconds and swaps swaps (see LocalSearch)
+java Optimizer --analyze              count valid loadouts by keystat total (see Analytics)
+java Optimizer --pareto               write every loadout not dominated over the keystats to pareto.csv (see ParetoSearch)
+
 
 CHANGE LOG
 --------------------
@@ -16,15 +27,20 @@ CHANGE LOG
 - fixed bug where setting THREAD_COUNT to 1 caused permutation testing to terminate prematurely
 - fixed bug where not all stats were taken into account during comparisons
 - fixed bug where not all inferior equipment was eliminated
+- load is now distributed by permutation rank (the permutation read as a mixed-radix number) instead of by the first slot number
+- added coordinator and worker modes for splitting a search across processes
+- added periodic checkpoints and --resume
+- added approximate local search mode
+- added loadout count and keystat distribution analytics
+- added stat weights, priority levels and minimized stats; the objective is compiled into one score per item
+- ties between equal keystat totals are now broken by the allstat total in every thread, not by the stat range
+- items that are interchangeable for the chosen keystats are searched as one item
+- added pareto front mode
 
 FUTURE DEVELOPMENT
 --------------------
-Account for stats of differing magnitude.
-Account for multiple priority levels.
 Account for having multiple item slots of the same name.
-Add choice of stats to minimize.
 Account for items that fit into multiple item slots.
-Refine load distribution to include more than just the first slot number.
 Release unused items for garbage collection.
 GUI
 
@@ -38,36 +54,89 @@ public class Optimizer {
 	static ArrayList<Item> items = new ArrayList<Item>();
 	static ArrayList<String> allStatNames = new ArrayList<String>();
 	static ArrayList<String> keyStats = new ArrayList<String>();
+	static Objective objective;
 	static ArrayList<String> slots = new ArrayList<String>();
 	static ArrayList<Integer> playerSlots = new ArrayList<Integer>();
 	//arraylist of arraylists to store all items sorted by slots
 	static ArrayList<ArrayList<Item>> sortedList = new ArrayList<ArrayList<Item>>(); //the first layer of this list is in the same order as ArrayList slots
 	final static int THREAD_COUNT = 8;
+	final static int DEFAULT_PORT = 5150; //used by --coordinator and --worker when no port is given
+	final static int DEFAULT_APPROXIMATE_SECONDS = 10; //used by --approximate when no time budget is given
 	
 	public static void main(String args[]) {
+		//worker processes receive their query from the coordinator instead of the user
+		if(args.length > 0 && args[0].equals("--worker")) {
+			Worker.run(getIntArgument(args, DEFAULT_PORT));
+			return;
+		}
+		//continue a search that was stopped, using the query saved in the checkpoint
+		if(args.length > 0 && args[0].equals("--resume")) {
+			String checkpointFile = args.length > 1 ? args[1] : Checkpointer.CHECKPOINT_FILE;
+			ArrayList<Calculator> threads = Checkpointer.load(checkpointFile);
+			if(threads != null) {
+				search(threads, checkpointFile);
+			}
+			return;
+		}
+		//a new search would overwrite the checkpoint of a stopped one, so it has to be resumed or deleted first
+		boolean checkpointed = args.length == 0 || !Arrays.asList("--coordinator", "--approximate", "--analyze", "--pareto").contains(args[0]);
+		if(checkpointed && new File(Checkpointer.CHECKPOINT_FILE).exists()) {
+			System.out.println(Checkpointer.CHECKPOINT_FILE + " holds the progress of a stopped search. Continue it with --resume or delete it to start a new search.");
+			return;
+		}
 		//read in text file and process lines into items
 		processItems(readFile());
 		//get slots present on character
 		getSlots();
 		//get item groups to exclude
 		getExclusionParams();
-		//remove items that are inferior in every other way to another item
-		optimize();
+		//a slot whose items were all excluded cannot be filled
+		if(reportEmptySlots()) {
+			return;
+		}
 		//get target parameters
 		getParams();
+		//remove items that are inferior in every other way to another item (which way is better depends on the objective)
+		//analytics counts every loadout, so it keeps the inferior items
+		if(!(args.length > 0 && args[0].equals("--analyze"))) {
+			optimize();
+		}
+		//keep one item of each group of items that are interchangeable for the chosen keystats
+		collapseEquivalentItems();
 		//sort items based on slots they occupy
 		sortItems();
-		//split load evenly into threads
-		int loadDistribution = sortedList.get(0).size() / THREAD_COUNT;
-		int segmentStart = 0;
-		int segmentStop = loadDistribution;
-		ArrayList<Calculator> threads = new ArrayList<Calculator>();
-		for(int i = 0; i < THREAD_COUNT; i++, segmentStart += loadDistribution, segmentStop += loadDistribution) {
-			if(segmentStop >= sortedList.get(0).size()) {
-				segmentStop = 0;
-			}
-			threads.add(new Calculator(slots, allStatNames, sortedList, keyStats, segmentStart, segmentStop, THREAD_COUNT));
+		//pack() drops the allstat tie-break if it does not fit, which changes how ties are broken
+		if(!objective.tieBreakFits(new CompiledQuery(sortedList, allStatNames, objective).stats)) {
+			System.out.println("Warning: the stat totals are too large to also break ties by the total of all stats; loadouts tied after the last priority level are not ranked further.");
+		}
+		//hand the permutation space to worker processes instead of local threads
+		if(args.length > 0 && args[0].equals("--coordinator")) {
+			new Coordinator(Calculator.countPermutations(sortedList)).run(getIntArgument(args, DEFAULT_PORT));
+			return;
+		}
+		//trade exactness for speed on catalogs too large to search exhaustively
+		if(args.length > 0 && args[0].equals("--approximate")) {
+			LocalSearch.search(getIntArgument(args, DEFAULT_APPROXIMATE_SECONDS), getLongArgument(args, 2, LocalSearch.DEFAULT_ITERATIONS));
+			return;
 		}
+		//count loadouts by keystat total instead of searching for the best one
+		if(args.length > 0 && args[0].equals("--analyze")) {
+			Analytics.analyze();
+			return;
+		}
+		//find every loadout that is not beaten in all keystats by another one
+		if(args.length > 0 && args[0].equals("--pareto")) {
+			ParetoSearch.search();
+			return;
+		}
+		//split load evenly into threads
+		search(createThreads(0, Calculator.countPermutations(sortedList)), Checkpointer.CHECKPOINT_FILE);
+	}
+	
+	public static void search(ArrayList<Calculator> threads, String checkpointFile) {
+		//periodically save the progress of each thread to checkpointFile so the search can be resumed
+		Checkpointer checkpointer = new Checkpointer(threads, checkpointFile);
+		checkpointer.start();
 		//calculate best option in each thread
 		for(Calculator c : threads) {
 			c.start();
@@ -80,10 +149,108 @@ public class Optimizer {
 				//do nothing
 			}
 		}
+		checkpointer.finish();
 		//check each thread result for overall best option and output results
 		finalEvaluation(threads);
 	}
 	
+	//reads the number following the mode argument (e.g. the port after --coordinator), falling back to defaultValue
+	public static int getIntArgument(String args[], int defaultValue) {
+		if(args.length > 1) {
+			try {
+				return Integer.valueOf(args[1].trim());
+			} catch(NumberFormatException e) {
+				//fall through to default value
+			}
+		}
+		return defaultValue;
+	}
+	
+	//reads args[index] as a long (e.g. the swap budget after --approximate [secs]), falling back to defaultValue
+	public static long getLongArgument(String args[], int index, long defaultValue) {
+		if(args.length > index) {
+			try {
+				return Long.valueOf(args[index].trim());
+			} catch(NumberFormatException e) {
+				//fall through to default value
+			}
+		}
+		return defaultValue;
+	}
+	
+	//writes the processed query (stats, objective, slots and the items left in each slot) so that it can be rebuilt by readQuery()
+	public static void writeQuery(PrintWriter out) {
+		out.println("STATS;" + String.join(";", allStatNames));
+		out.println("OBJECTIVE;" + objective.getDescription());
+		out.println("SLOTS;" + String.join(";", slots));
+		for(ArrayList<Item> slotItems : sortedList) {
+			for(Item item : slotItems) {
+				out.println("ITEM;" + item.toLine());
+				if(item.getAlternatives().size() > 0) {
+					out.println("ALTERNATIVES;" + String.join(";", item.getAlternatives()));
+				}
+			}
+		}
+		out.println("END");
+	}
+	
+	//populates the lists the same way the user input did
+	public static void readQuery(BufferedReader in) throws IOException {
+		ArrayList<String> itemLines = new ArrayList<String>();
+		HashMap<Integer, String> alternativeLines = new HashMap<Integer, String>(); //keyed by the index of the item line they follow
+		String line = null;
+		while((line = in.readLine()) != null && !line.equals("END")) {
+			String value = line.substring(line.indexOf(";") + 1);
+			if(line.startsWith("STATS;")) {
+				allStatNames.addAll(Arrays.asList(value.split(";")));
+			} else if(line.startsWith("OBJECTIVE;")) {
+				objective = new Objective(value, allStatNames);
+				keyStats.addAll(objective.getStatNames());
+			} else if(line.startsWith("SLOTS;")) {
+				slots.addAll(Arrays.asList(value.split(";")));
+			} else if(line.startsWith("ITEM;")) {
+				itemLines.add(value);
+			} else if(line.startsWith("ALTERNATIVES;")) {
+				alternativeLines.put(itemLines.size() - 1, value);
+			}
+		}
+		if(line == null) {
+			throw new IOException("query ended before END");
+		}
+		processItems(itemLines);
+		for(Map.Entry<Integer, String> e : alternativeLines.entrySet()) {
+			items.get(e.getKey()).getAlternatives().addAll(Arrays.asList(e.getValue().split(";")));
+		}
+		sortItems();
+	}
+	
+	public static String joinInts(int[] values) {
+		String result = "";
+		for(int i = 0; i < values.length; i++) {
+			result += (i > 0 ? "," : "") + values[i];
+		}
+		return result;
+	}
+	
+	public static int[] parseInts(String field) {
+		String[] values = field.split(",");
+		int[] result = new int[values.length];
+		for(int i = 0; i < values.length; i++) {
+			result[i] = Integer.valueOf(values[i]);
+		}
+		return result;
+	}
+	
+	//splits the permutation ranks [startRank, endRank) evenly into THREAD_COUNT calculators
+	public static ArrayList<Calculator> createThreads(long startRank, long endRank) {
+		long[] bounds = Calculator.splitRanks(startRank, endRank, THREAD_COUNT);
+		ArrayList<Calculator> threads = new ArrayList<Calculator>();
+		for(int i = 0; i < THREAD_COUNT; i++) {
+			threads.add(new Calculator(slots, allStatNames, sortedList, objective, bounds[i], bounds[i + 1]));
+		}
+		return threads;
+	}
+	
 	public static void getSlots() {
 		Scanner scanner = new Scanner(System.in);
 		//populate slots and playerSlots arraylist
@@ -177,31 +344,19 @@ public class Optimizer {
 	}
 	
 	public static void finalEvaluation(ArrayList<Calculator> results) {
-		//sort threads by keystat totals high to low
-		while(true) {
-			boolean switched = false;
-			for(int i = 0; i < results.size() - 1; i++) {
-				if(results.get(i).getKeyStatTotal() < results.get(i + 1).getKeyStatTotal()) {
-					Calculator temp = results.get(i);
-					results.set(i, results.get(i + 1));
-					results.set(i + 1, temp);
-					switched = true;
-				} else if(results.get(i).getKeyStatTotal() == results.get(i + 1).getKeyStatTotal()) {
-					//if keyStatTotal is the same for both results, sort by allStatTotal
-					if(results.get(i).getAllStatTotal() < results.get(i + 1).getAllStatTotal()) {
-						Calculator temp = results.get(i);
-						results.set(i, results.get(i + 1));
-						results.set(i + 1, temp);
-						switched = true;
-					}
-				}
-			}
-			if(!switched) {
-				break;
+		//output the best result as final result
+		bestResult(results).printBest();
+	}
+	
+	public static Calculator bestResult(ArrayList<Calculator> results) {
+		//find the thread with the highest objective score
+		Calculator best = results.get(0);
+		for(Calculator c : results) {
+			if(c.isFound() && (!best.isFound() || c.getBestScore() > best.getBestScore())) {
+				best = c;
 			}
 		}
-		//output item at index 0 as final result
-		results.get(0).printBest();
+		return best;
 	}
 	
 	public static void sortItems() {
@@ -248,96 +403,161 @@ public class Optimizer {
 			System.out.println(menuNumber + ": " + allStatNames.get(i));
 		}
 		System.out.println("-------------------------------");
-		//get user input
-		System.out.print("Priorities (,): ");
+		//group the items by slot so the objective can be checked against them
+		ArrayList<ArrayList<Item>> itemsBySlot = new ArrayList<ArrayList<Item>>();
+		for(String slot : slots) {
+			ArrayList<Item> matchingItems = new ArrayList<Item>();
+			for(Item item : items) {
+				if(slot.equals(item.getSlot())) {
+					matchingItems.add(item);
+				}
+			}
+			itemsBySlot.add(matchingItems);
+		}
+		//get user input (see Objective for the format)
 		Scanner scanner = new Scanner(System.in);
-		String selections = scanner.nextLine();
-		selections += ",";
-		System.out.println();
-		//parse input and add items to keyStats
 		while(true) {
-			int selectionNum = Integer.valueOf(selections.substring(0, selections.indexOf(",")));
-			keyStats.add(allStatNames.get(--selectionNum));
-			if(selections.indexOf(",") == selections.length() - 1) {
+			System.out.print("Priorities (,  weight: 1*3  minimize: -1  next priority level: >): ");
+			try {
+				objective = new Objective(scanner.nextLine(), allStatNames);
+				//compiling the objective fails if the weights or priority levels do not fit in one long score per item
+				new CompiledQuery(itemsBySlot, allStatNames, objective);
 				break;
+			} catch(ArithmeticException e) {
+				System.out.println("The weights or priority levels are too large to compare loadouts exactly.");
+			} catch(IllegalArgumentException e) {
+				//loop back for invalid entries
+			}
+		}
+		System.out.println();
+		//every stat the objective uses is a keystat
+		keyStats.addAll(objective.getStatNames());
+	}
+	
+	//removes items from items arrayList that are interchangeable with an earlier item for this query and records them as alternatives of that item
+	//items are interchangeable if they have the same slot, keystat amounts, allstat total, groups and exclusions, so every loadout gets the same keystat and allstat totals and the same conflicts with either one
+	//this relies on loadouts being compared only by the objective and the allstat tie-break (see Objective); a tie-break on any other stat has to be added to the key
+	public static void collapseEquivalentItems() {
+		//exclusions of groups no item belongs to cannot cause conflicts, so they do not tell items apart
+		HashSet<String> usedGroups = new HashSet<String>();
+		for(Item i : items) {
+			usedGroups.addAll(i.getGroups());
+		}
+		HashMap<String, Item> representatives = new HashMap<String, Item>();
+		for(int i = 0; i < items.size(); i++) {
+			String key = equivalenceKey(items.get(i), usedGroups);
+			Item representative = representatives.get(key);
+			if(representative == null) {
+				representatives.put(key, items.get(i));
 			} else {
-				selections = selections.substring(selections.indexOf(",") + 1);
+				representative.getAlternatives().add(items.get(i).getName());
+				items.remove(i);
+				i--;
+			}
+		}
+	}
+	
+	private static String equivalenceKey(Item item, HashSet<String> usedGroups) {
+		String key = item.getSlot() + ";";
+		for(String keyStat : keyStats) {
+			int amount = 0;
+			for(Stat s : item.getStats()) {
+				if(s.getName().equals(keyStat)) {
+					amount += s.getAmount();
+				}
 			}
+			key += amount + ";";
 		}
+		int allStatTotal = 0;
+		for(Stat s : item.getStats()) {
+			allStatTotal += s.getAmount();
+		}
+		ArrayList<String> groups = new ArrayList<String>(item.getGroups());
+		ArrayList<String> exclusions = new ArrayList<String>(item.getExclusions());
+		exclusions.retainAll(usedGroups);
+		Collections.sort(groups);
+		Collections.sort(exclusions);
+		return key + allStatTotal + ";" + String.join(",", groups) + ";" + String.join(",", exclusions);
+	}
+	
+	//prints the slots that have no items left; returns true if there are any
+	public static boolean reportEmptySlots() {
+		boolean empty = false;
+		for(String slot : slots) {
+			boolean found = false;
+			for(Item item : items) {
+				if(slot.equals(item.getSlot())) {
+					found = true;
+					break;
+				}
+			}
+			if(!found) {
+				System.out.println("Every " + slot + " item was excluded, so no loadout is possible.");
+				empty = true;
+			}
+		}
+		return empty;
 	}
 	
 	//removes items from items arrayList if there is another item that is quantifiably better in every way that can be equipped to the same slot
+	//a stat is better when higher unless the objective minimizes it; items that differ in a stat the objective both maximizes and minimizes are both kept
+	//an item is only removed in favor of one that can be worn in every loadout it can (see canReplace())
 	public static void optimize() {
+		int[] directions = objective.getStatDirections();
 		for(int i = 0; i < items.size() - 1; i++) { //for each item in items array list...
 			//compare item to all other items...
 			for(int j = i + 1; j < items.size(); j++) {
 				//if the item can be equipped to the same slot...
 				if(items.get(i).getSlot().equals(items.get(j).getSlot())) {
-					ArrayList<Stat> firstItemStats = items.get(i).getStats();
-					ArrayList<Stat> secondItemStats = items.get(j).getStats();
-					//ArrayList<Stat> secondItemStatsOrganized = new ArrayList<Stat>(); //will no longer be needed with new code...delete
-					/**NEW CODE*/
+					int[] firstItemStats = statVector(items.get(i));
+					int[] secondItemStats = statVector(items.get(j));
 					//check to see which item has quantifiably better stats...
 					boolean itemOneBetter = false;
 					boolean itemTwoBetter = false;
-					for(Stat s1 : firstItemStats) {
-						boolean found = false;
-						//s1 is present in item2...
-						for(Stat s2 : secondItemStats) {
-							if(s1.getName().equals(s2.getName())) {
-								found = true;
-								if(s1.getAmount() > s2.getAmount()) { //if s1 is better
-									itemOneBetter = true;
-								} else if(s2.getAmount() > s1.getAmount()) { //if s2 is better
-									itemTwoBetter = true;
-								}
-							}
-						}
-						//s1 is not present in item2...
-						if(!found) {
-							if(s1.getAmount() < 0) {
-								itemTwoBetter = true;
-							} else {
-								itemOneBetter = true;
-							}
+					for(int k = 0; k < directions.length; k++) {
+						if(firstItemStats[k] == secondItemStats[k]) {
+							continue;
 						}
-					}
-					//check negatives for stats in item two that are not present in item one
-					for(Stat s2 : secondItemStats) {
-						boolean found = false;
-						//s2 is present in item2...
-						for(Stat s1 : firstItemStats) {
-							if(s2.getName().equals(s1.getName())) {
-								found = true;
-							}
-						}
-						//s1 is not present in item2...
-						if(!found) {
-							if(s2.getAmount() < 0) {
-								itemOneBetter = true;
-							} else {
-								itemTwoBetter = true;
-							}
+						if(directions[k] == 0) { //neither direction is better for this stat
+							itemOneBetter = true;
+							itemTwoBetter = true;
+						} else if(directions[k] * (firstItemStats[k] - secondItemStats[k]) > 0) { //if stat of item one is better
+							itemOneBetter = true;
+						} else { //if stat of item two is better
+							itemTwoBetter = true;
 						}
 					}
 					//item elimination conditions
-					if(!itemOneBetter && itemTwoBetter) {
+					if(!itemOneBetter && itemTwoBetter && canReplace(items.get(j), items.get(i))) {
 						//FALSE TRUE = second item has better stats : remove first one
 						items.remove(i);
 						i--;
 						break;
-					} else if((!itemOneBetter && !itemTwoBetter) ||(itemOneBetter && !itemTwoBetter)) {
-						//FALSE FALSE = both have equivalent and equal stats : remove second one
+					} else if(itemOneBetter && !itemTwoBetter && canReplace(items.get(i), items.get(j))) {
 						//TRUE FALSE = first item has better stats : remove second one
 						items.remove(j);
 						j--;
-					} //TRUE TRUE = both items are unique : do not remove either
-					/**END NEW CODE*/
+					} //FALSE FALSE = both have equivalent and equal stats : keep both so collapseEquivalentItems() can list them as alternatives
+					//TRUE TRUE = both items are unique, or the better item cannot be worn everywhere the other can : do not remove either
 				}
 			}
 		}
 	}
 	
+	//true if replacement belongs to no group and excludes no group that original does not, so it conflicts with nothing original does not
+	private static boolean canReplace(Item replacement, Item original) {
+		return original.getGroups().containsAll(replacement.getGroups()) && original.getExclusions().containsAll(replacement.getExclusions());
+	}
+	
+	//returns the stat amounts of item in allStatNames order (0 for stats the item does not have)
+	private static int[] statVector(Item item) {
+		int[] amounts = new int[allStatNames.size()];
+		for(Stat s : item.getStats()) {
+			amounts[allStatNames.indexOf(s.getName())] += s.getAmount();
+		}
+		return amounts;
+	}
+	
 	//populates ArrayList<Item> items with ArrayList<String> rawLines
 	public static void processItems(ArrayList<String> rawLines) {
 		for(String s : rawLines) {
@@ -426,19 +646,22 @@ public class Optimizer {
 class Calculator extends Thread {
 	private int[] bestPermutation;
 	private int[] bestStats;
-	private int keyStatTotal; //used for comparing results of all threads
-	private int allStatTotal; //used for comparing results of all threads
-	private int startingPos;
-	private int endingPos;
+	private long bestScore; //packed objective score of bestPermutation, used for comparing results of all threads
+	private boolean found = false; //true once a loadout without conflicting groups has been found
+	private long startingRank; //first permutation rank (inclusive) this thread evaluates
+	private long endingRank; //last permutation rank (exclusive) this thread evaluates
+	//copy of the progress made so far, published from run() every CHECKPOINT_INTERVAL permutations for Checkpointer
+	private long progressRank;
+	private boolean progressFound;
+	private int[] progressPermutation;
+	final static long CHECKPOINT_INTERVAL = 1 << 20; //must be a power of 2
 	
 	private ArrayList<String> slots;
 	private ArrayList<String> allStatNames;
-	private ArrayList<ArrayList<Item>> sortedList = new ArrayList<ArrayList<Item>>();;
-	private ArrayList<String> keyStats;
+	private ArrayList<ArrayList<Item>> sortedList = new ArrayList<ArrayList<Item>>();
+	private CompiledQuery query;
 	
-	private final int THREAD_COUNT;
-	
-	public Calculator(ArrayList<String> slots, ArrayList<String> allStatNames, ArrayList<ArrayList<Item>> sortedList, ArrayList<String> keyStats, int startingPos, int endingPos, int threadCount) {
+	public Calculator(ArrayList<String> slots, ArrayList<String> allStatNames, ArrayList<ArrayList<Item>> sortedList, Objective objective, long startingRank, long endingRank) {
 		this.slots = (ArrayList<String>) slots.clone();
 		this.allStatNames = (ArrayList<String>) allStatNames.clone();
 		//create a deep copy of sortedList
@@ -450,201 +673,130 @@ class Calculator extends Thread {
 				this.sortedList.get(i).add(new Item(sortedList.get(i).get(j)));
 			}
 		}
-		this.keyStats = (ArrayList<String>) keyStats.clone();
-		this.startingPos = startingPos;
-		this.endingPos = endingPos;
-		this.THREAD_COUNT = threadCount;
+		//each thread gets its own stat, score and group tables
+		this.query = new CompiledQuery(this.sortedList, this.allStatNames, objective);
+		this.startingRank = startingRank;
+		this.endingRank = endingRank;
+		//set up a best permutation
+		this.bestPermutation = new int[this.slots.size()];
+		this.bestStats = new int[this.allStatNames.size()];
+		this.progressPermutation = new int[this.bestPermutation.length];
+		this.progressRank = startingRank;
+	}
+	
+	//continues a search from a checkpoint: starts at rank with the best loadout found before it, if any (must be called before start())
+	public void resume(long rank, int[] permutation) {
+		this.startingRank = rank;
+		if(permutation != null) {
+			merge(permutation);
+		}
+		publishProgress(rank);
+	}
+	
+	//copies the current state so the checkpoint thread never reads arrays that run() is changing
+	private synchronized void publishProgress(long rank) {
+		this.progressRank = rank;
+		this.progressFound = this.found;
+		System.arraycopy(this.bestPermutation, 0, this.progressPermutation, 0, this.bestPermutation.length);
+	}
+	
+	//position;endingRank;best permutation (none if not found yet) as of the last published progress
+	public synchronized String getProgressLine() {
+		return this.progressRank + ";" + this.endingRank + ";" + (this.progressFound ? Optimizer.joinInts(this.progressPermutation) : "none");
+	}
+	
+	//returns the total number of permutations, i.e. the product of all slot sizes
+	public static long countPermutations(ArrayList<ArrayList<Item>> sortedList) {
+		long count = 1;
+		for(ArrayList<Item> slotItems : sortedList) {
+			count = Math.multiplyExact(count, (long) slotItems.size());
+		}
+		return count;
+	}
+	
+	//splits the ranks [startRank, endRank) into parts ranges of equal size; range i is [bounds[i], bounds[i + 1])
+	public static long[] splitRanks(long startRank, long endRank, int parts) {
+		long loadDistribution = (endRank - startRank) / parts;
+		long[] bounds = new long[parts + 1];
+		for(int i = 0; i < parts; i++) {
+			bounds[i] = startRank + i * loadDistribution;
+		}
+		bounds[parts] = endRank; //the last range also takes the remainder of the division
+		return bounds;
+	}
+	
+	//fills permutation with the digits of rank read as a mixed-radix number; the last slot is the least significant digit
+	public static void decodeRank(long rank, ArrayList<ArrayList<Item>> sortedList, int[] permutation) {
+		for(int i = permutation.length - 1; i >= 0; i--) {
+			int radix = sortedList.get(i).size();
+			permutation[i] = (int) (rank % radix);
+			rank /= radix;
+		}
+	}
+	
+	public boolean isFound() {
+		return this.found;
 	}
 	
-	public int getKeyStatTotal() {
-		return this.keyStatTotal;
+	public long getBestScore() {
+		return this.bestScore;
 	}
 	
-	public int getAllStatTotal() {
-		return this.allStatTotal;
+	public int[] getBestPermutation() {
+		return this.bestPermutation;
+	}
+	
+	//replaces the best loadout with the given one if it has a higher objective score (same ordering as Optimizer.bestResult())
+	public void merge(int[] permutation) {
+		long score = this.query.score(permutation);
+		if(!this.found || score > this.bestScore) {
+			this.bestPermutation = permutation.clone();
+			this.bestStats = this.query.totalStats(permutation);
+			this.bestScore = score;
+			this.found = true;
+		}
 	}
 	
 	public void run() {
 		int slotCount = this.slots.size(); //number of digits in each permutations
-		this.bestPermutation = new int[slotCount];
-		this.bestStats = new int[this.allStatNames.size()];
-		//set up a best permutation
-		for(int i = 0; i < this.bestPermutation.length; i++) {
-			this.bestPermutation[i] = 0;
-		}
 		//get starting permutation
 		int[] currentPermutation = new int[slotCount];
-		int[] currentStats = new int[this.allStatNames.size()];
-		currentPermutation[0] = this.startingPos; //set at time of thread creation (USED FOR MULTITHREADING)
-		for(int i = 1; i < currentPermutation.length; i++) {
-			currentPermutation[i] = 0;
-		}
-		int currentStatsLength = currentStats.length;
+		decodeRank(this.startingRank, this.sortedList, currentPermutation); //set at time of thread creation (USED FOR MULTITHREADING)
+		long remaining = this.endingRank - this.startingRank;
 		int currentPermutationLength = currentPermutation.length;
-		int allStatNamesSize = this.allStatNames.size();
-		//check all permutations
-		while(true) {
-			//reset values for currentStats
-			for(int i = 0; i < currentStatsLength; i++) {
-				currentStats[i] = 0;
-			}
-			//check code for conflicting groups
-			boolean valid = true;
-			for(int i = 0; i < currentPermutationLength - 1; i++) {
-				for(int j = i + 1; j < currentPermutationLength; j++) {
-					for(String s : this.sortedList.get(i).get(currentPermutation[i]).getExclusions()) {
-						if(this.sortedList.get(j).get(currentPermutation[j]).getGroups().contains(s)) {
-							valid = false;
-							break;
-						}
-					}
-					if(!valid) {
-						break;
-					}
-				}
-				if(!valid) {
-					break;
-				}
-			}
+		long[][] scores = this.query.scores;
+		boolean found = this.found;
+		long bestScore = this.bestScore;
+		//check all permutations in [startingRank, endingRank)
+		while(remaining > 0) {
 			//ONLY TEST THE PERMUTATION IF IT DOES NOT CONTAIN ITEMS IN CONFLICTING GROUPS
-			if(valid) {
-				//get stats for each item in currentPermutation and find the total
-				for(int i = 0; i < currentPermutationLength; i++) { //for each slot in the permutation...
-					//get the item from the sorted arraylist of arraylists based on permutation
-					Item currentItem = this.sortedList.get(i).get(currentPermutation[i]);
-					//for each stat in the item...
-					int currentItemStatsSize = currentItem.stats.size();
-					for(int j = 0; j < currentItemStatsSize; j++) {
-						//search through allStatNames to identify the appropriate location in currentStats to add stat to using Stat.name
-						Stat currentItemStat = currentItem.stats.get(j);
-						for(int k = 0; k < allStatNamesSize; k++) {
-							if(currentItemStat.getName().equals(this.allStatNames.get(k))) { //when a match is found...
-								currentStats[k] += currentItemStat.getAmount(); //add the stat to currentStats
-								break;
-							}
-						}
-					}
-				}
-				//compare keyStat values for currentStats with bestStats; if higher, replace bestPermutation and bestStats
-				int advantage = 0; //tracks the positive and negative effect of the new loadout over the old loadout (advantage = new - old)
-				for(String s : this.keyStats) { //this is looping once per keystat 32 * 4 = 128
-					for(int i = 0; i < allStatNamesSize; i++) { //i indicates the position of the stat in all arrays
-						if(s.equals(this.allStatNames.get(i))) {
-							advantage += currentStats[i] - this.bestStats[i];
-						}
-					}
-				}
-				if(advantage >= 0) {
-					//check all stats to see if there is an advantage to changing to the current loadout
-					int bestStatsTotal = 1; //this will not change if advantage > 0; if advantage is 0, a further check is required to determine if there is ANY advantage to switching loadouts
-					if(advantage == 0) { //if there is no keystat advantage...
-						/**NEW CODE STARTS HERE*/
-						//check for the smallest stat range
-						//sort best and current stats low to high
-						int[] sortedBestStats = new int[bestStats.length];
-						int[] sortedCurrentStats = new int[currentStats.length]; //this will always be the same length as sortedBestStats
-						for(int i = 0; i < bestStats.length; i++) { //copy values to be sorted
-							sortedBestStats[i] = bestStats[i];
-							sortedCurrentStats[i] = currentStats[i];
-						}
-						boolean switched = false;
-						do { //sort sortedBestStats
-							switched = false;
-							for(int i = 0; i < sortedBestStats.length - 1; i++) {
-								if(sortedBestStats[i] > sortedBestStats[i + 1]) {
-									switched = true;
-									int temp = sortedBestStats[i];
-									sortedBestStats[i] = sortedBestStats[i + 1];
-									sortedBestStats[i + 1] = temp;
-								}
-							}
-						} while(switched);
-						do { //sort sortedCurrentStats
-							switched = false;
-							for(int i = 0; i < sortedCurrentStats.length - 1; i++) {
-								if(sortedCurrentStats[i] > sortedCurrentStats[i + 1]) {
-									switched = true;
-									int temp = sortedCurrentStats[i];
-									sortedCurrentStats[i] = sortedCurrentStats[i + 1];
-									sortedCurrentStats[i + 1] = temp;
-								}
-							}
-						} while(switched);
-						//calculate ranges
-						int range1 = sortedBestStats[sortedBestStats.length - 1] - sortedBestStats[0];
-						int range2 = sortedCurrentStats[sortedCurrentStats.length - 1] - sortedCurrentStats[0];
-						if(range1 < range2) {
-							bestStatsTotal = 1; //NEW BEST FOUND
-						} else if(range1 == range2) {
-							//check for non-keystat advantage
-							bestStatsTotal = 0;
-							for(int i : this.bestStats) {
-								bestStatsTotal += i;
-							}
-							int currentStatsTotal = 0;
-							for(int i : currentStats) {
-								currentStatsTotal += i;
-							}
-							if(bestStatsTotal < currentStatsTotal) {
-								bestStatsTotal = 1;
-							} else {
-								bestStatsTotal = 0;
-							}
-						}
-						/**END NEW CODE*/
-					}
-					//this will occur if there is a keystat advantage OR if there is a break-even keystat advantage and a non-keystat advantage
-					if(bestStatsTotal > 0) { //NEW BEST FOUND
-						//make current loadout and stats into best loadout and stats
-						for(int i = 0; i < currentPermutationLength; i++) { //loadout
-							this.bestPermutation[i] = currentPermutation[i];
-						}
-						for(int i = 0; i < bestStats.length; i++) { //stats
-							this.bestStats[i] = currentStats[i];
-						}
-					}
+			if(this.query.isValid(currentPermutation)) {
+				//the objective is compiled into one score per item, so the loadout score is their sum
+				long score = 0;
+				for(int i = 0; i < currentPermutationLength; i++) {
+					score += scores[i][currentPermutation[i]];
 				}
-			}
-			//increase currentPermutation; break if out of bounds
-			for(int i = currentPermutationLength - 1; i >= 0; i--) { //works from the last item in permutation and progresses backward
-				//increase the last digit in the permutation
-				currentPermutation[i]++;
-				//if out of range of possible permutative values, reset to 0; if in range, exit loop
-				if(currentPermutation[i] >= this.sortedList.get(i).size()) {
-					currentPermutation[i] = 0;
-				} else {
-					break; //stops incrementation if current incrementation is within range
-				}
-			}
-			//if first permutative value equals endingPos and all other permutative values are 0, all permutations have been evaluated, exit while loop
-			if(currentPermutation[0] == endingPos) {
-				boolean allZeros = true;
-				for(int i = 1; i < currentPermutationLength; i++) {
-				//for(int i : currentPermutation) {
-					if(currentPermutation[i] != 0) {
-						allZeros = false;
+				if(!found || score > bestScore) { //NEW BEST FOUND
+					found = true;
+					bestScore = score;
+					//make current loadout into best loadout
+					for(int i = 0; i < currentPermutationLength; i++) {
+						this.bestPermutation[i] = currentPermutation[i];
 					}
-				}
-				if(allZeros) {
-					break;
+					this.found = true;
+					this.bestScore = score;
 				}
 			}
-		}
-		//calculate keyStatTotal
-		for(String s : this.keyStats) {
-			//find the string's position in allStatNames
-			for(int i = 0; i < this.allStatNames.size(); i++) {
-				if(s.equals(this.allStatNames.get(i))) {
-					//add the number at index i in bestStats to bestStatTotal
-					this.keyStatTotal += this.bestStats[i];
-					break; //move on to next String s in keyStats
-				}
+			//increase currentPermutation
+			this.query.next(currentPermutation);
+			remaining--;
+			//publish progress for checkpoints; currentPermutation is the next permutation to evaluate
+			if((remaining & (CHECKPOINT_INTERVAL - 1)) == 0) {
+				publishProgress(this.endingRank - remaining);
 			}
 		}
-		//calculate allStatTotal
-		for(int i : this.bestStats) {
-			this.allStatTotal += i;
-		}
+		//calculate the stats of the best loadout
+		this.bestStats = this.query.totalStats(this.bestPermutation);
 	}
 	
 	public void printBest() {
@@ -655,10 +807,15 @@ class Calculator extends Thread {
 			output.println("RESULTS");
 			System.out.println("----------------------------");
 			output.println("----------------------------");
+			if(!this.found) {
+				System.out.println("No valid loadout found.");
+				output.println("No valid loadout found.");
+				return;
+			}
 			for(int i = 0; i < bestPermutation.length; i++) {
-				//print the name of the item
-				System.out.println(sortedList.get(i).get(bestPermutation[i]).getName());
-				output.println(sortedList.get(i).get(bestPermutation[i]).getName());
+				//print the name of the item and any equivalent items that could be worn instead
+				System.out.println(sortedList.get(i).get(bestPermutation[i]).getNameWithAlternatives());
+				output.println(sortedList.get(i).get(bestPermutation[i]).getNameWithAlternatives());
 			}
 			System.out.println();
 			output.println();
@@ -666,6 +823,17 @@ class Calculator extends Thread {
 				System.out.println(allStatNames.get(i) + ": " + bestStats[i]);
 				output.println(allStatNames.get(i) + ": " + bestStats[i]);
 			}
+			//the alternatives only share the keystats and the allstat total with the first item
+			boolean hasAlternatives = false;
+			for(int i = 0; i < bestPermutation.length; i++) {
+				hasAlternatives |= sortedList.get(i).get(bestPermutation[i]).getAlternatives().size() > 0;
+			}
+			if(hasAlternatives) {
+				System.out.println();
+				output.println();
+				System.out.println(Item.ALTERNATIVES_NOTE);
+				output.println(Item.ALTERNATIVES_NOTE);
+			}
 		} catch(Exception e) {
 			e.printStackTrace();
 		}
@@ -678,7 +846,8 @@ class Item {
 	public ArrayList<Stat> stats = new ArrayList<Stat>();
 	public ArrayList<String> groups = new ArrayList<String>();
 	public ArrayList<String> exclusions = new ArrayList<String>();
-	
+	public ArrayList<String> alternatives = new ArrayList<String>(); //names of equivalent items this item stands in for (see Optimizer.collapseEquivalentItems())
+	final static String ALTERNATIVES_NOTE = "Stat totals are for the first item named in each slot; an item in brackets gives the same keystat totals and total of all stats, but other stats may differ.";
 	
 	public Item(String name, String slot, ArrayList<String> groups, ArrayList<String> exclusions) {
 		this.name = name;
@@ -703,6 +872,20 @@ class Item {
 		for(int i = 0; i < original.getExclusions().size(); i++) {
 			this.exclusions.add(original.getExclusion(i));
 		}
+		for(String s : original.getAlternatives()) {
+			this.alternatives.add(s);
+		}
+	}
+	
+	public ArrayList<String> getAlternatives() {
+		return this.alternatives;
+	}
+	
+	public String getNameWithAlternatives() {
+		if(this.alternatives.size() == 0) {
+			return this.name;
+		}
+		return this.name + " (or " + String.join(", ", this.alternatives) + ")";
 	}
 	
 	public String getExclusion(int index) {
@@ -744,6 +927,15 @@ class Item {
 	public ArrayList<Stat> getStats() {
 		return this.stats;
 	}
+	
+	//returns the item in the same format as a line of items.csv (terminated with ;) so it can be read back by Optimizer.processItems()
+	public String toLine() {
+		String line = this.name + ";" + this.slot + ";" + String.join(",", this.groups) + ";" + String.join(",", this.exclusions) + ";";
+		for(Stat s : this.stats) {
+			line += s.getName() + ";" + s.getAmount() + ";";
+		}
+		return line;
+	}
 }
 
 class Stat {
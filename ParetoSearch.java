@@ -0,0 +1,318 @@
+/**
+Finds every loadout that is not dominated over the keystats ("java Optimizer --pareto") instead of the single best one.
+A loadout dominates another if it is at least as good in every keystat and better in one; keystats entered as minimized (e.g. -6) count as better when lower.
+Weights and priority levels do not matter here, except that of two loadouts with the same keystats the one with the higher objective score is kept.
+Each thread keeps its own ParetoArchive for its range of permutation ranks; the archives are merged and the front is written to pareto.csv.
+*/
+
+import java.util.*;
+import java.io.*;
+
+class ParetoSearch extends Thread {
+	final static String PARETO_FILE = "pareto.csv";
+	private long startingRank; //first permutation rank (inclusive) this thread evaluates
+	private long endingRank; //last permutation rank (exclusive) this thread evaluates
+	private CompiledQuery query;
+	private int[][] paretoStats; //[slot][item * dimensions + d] keystat d of the item, negated for minimized keystats
+	private int dimensions;
+	private ParetoArchive archive;
+
+	public ParetoSearch(CompiledQuery query, long startingRank, long endingRank) {
+		this.query = query;
+		this.startingRank = startingRank;
+		this.endingRank = endingRank;
+		ArrayList<String> statNames = Optimizer.objective.getStatNames();
+		ArrayList<Integer> signs = Optimizer.objective.getStatSigns();
+		this.dimensions = statNames.size();
+		this.paretoStats = new int[query.slotCount][];
+		for(int i = 0; i < query.slotCount; i++) {
+			this.paretoStats[i] = new int[query.itemCount(i) * dimensions];
+			for(int j = 0; j < query.itemCount(i); j++) {
+				for(int d = 0; d < dimensions; d++) {
+					this.paretoStats[i][j * dimensions + d] = signs.get(d) * query.stats[i][j][Optimizer.allStatNames.indexOf(statNames.get(d))];
+				}
+			}
+		}
+		this.archive = new ParetoArchive(dimensions, query.slotCount);
+	}
+
+	public static void search() {
+		CompiledQuery query = new CompiledQuery(Optimizer.sortedList, Optimizer.allStatNames, Optimizer.objective);
+		//split load evenly into threads
+		long[] bounds = Calculator.splitRanks(0, Calculator.countPermutations(Optimizer.sortedList), Optimizer.THREAD_COUNT);
+		ArrayList<ParetoSearch> threads = new ArrayList<ParetoSearch>();
+		for(int i = 0; i < Optimizer.THREAD_COUNT; i++) {
+			threads.add(new ParetoSearch(query, bounds[i], bounds[i + 1]));
+		}
+		for(ParetoSearch p : threads) {
+			p.start();
+		}
+		for(ParetoSearch p : threads) {
+			try {
+				p.join();
+			} catch(InterruptedException e) {
+				//do nothing
+			}
+		}
+		//merge the archives of all threads
+		ArrayList<ParetoArchive> archives = new ArrayList<ParetoArchive>();
+		for(ParetoSearch p : threads) {
+			archives.add(p.archive);
+		}
+		ParetoArchive front = ParetoArchive.merge(archives);
+		printFront(front, query);
+	}
+
+	public void run() {
+		int slotCount = query.slotCount;
+		int[] currentPermutation = new int[slotCount];
+		Calculator.decodeRank(this.startingRank, Optimizer.sortedList, currentPermutation);
+		long remaining = this.endingRank - this.startingRank;
+		long[][] scores = query.scores;
+		int[] vector = new int[dimensions];
+		//check all permutations in [startingRank, endingRank)
+		while(remaining > 0) {
+			if(query.isValid(currentPermutation)) {
+				long score = 0;
+				for(int d = 0; d < dimensions; d++) {
+					vector[d] = 0;
+				}
+				for(int i = 0; i < slotCount; i++) {
+					int offset = currentPermutation[i] * dimensions;
+					for(int d = 0; d < dimensions; d++) {
+						vector[d] += paretoStats[i][offset + d];
+					}
+					score += scores[i][currentPermutation[i]];
+				}
+				archive.offer(vector, currentPermutation, score);
+			}
+			query.next(currentPermutation);
+			remaining--;
+		}
+	}
+
+	//outputs the size of the front on-screen and every loadout in it with its stats to file (pareto.csv)
+	private static void printFront(ParetoArchive front, CompiledQuery query) {
+		boolean hasAlternatives = false;
+		try(PrintWriter output = new PrintWriter(PARETO_FILE)) {
+			output.println(String.join(";", Optimizer.slots) + ";" + String.join(";", Optimizer.allStatNames));
+			for(int i = 0; i < front.size(); i++) {
+				int[] permutation = front.getPermutation(i);
+				String line = "";
+				for(int j = 0; j < permutation.length; j++) {
+					Item item = Optimizer.sortedList.get(j).get(permutation[j]);
+					hasAlternatives |= item.getAlternatives().size() > 0;
+					line += item.getNameWithAlternatives() + ";";
+				}
+				for(int stat : query.totalStats(permutation)) {
+					line += stat + ";";
+				}
+				output.println(line.substring(0, line.length() - 1));
+			}
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+		System.out.println();
+		System.out.println(front.size() + " non-dominated loadouts over " + String.join(", ", Optimizer.keyStats) + " written to " + PARETO_FILE);
+		if(hasAlternatives) {
+			System.out.println(Item.ALTERNATIVES_NOTE);
+		}
+	}
+}
+
+//set of mutually non-dominated loadouts, kept sorted by the sum of their dimensions high to low
+//a point can only dominate a candidate with at most the same sum, so a candidate is only compared with points that could dominate it or that it could dominate
+class ParetoArchive {
+	private int dimensions;
+	private int slotCount;
+	private int size = 0;
+	private int[] vectors; //point i occupies [i * dimensions, (i + 1) * dimensions); higher is better in every dimension
+	private int[] sums; //sum of the dimensions of point i
+	private int[] permutations; //point i occupies [i * slotCount, (i + 1) * slotCount)
+	private long[] scores; //objective scores, used to choose between loadouts with the same vector
+	private int lastDominator = -1; //point that rejected the previous candidate; consecutive permutations are often dominated by the same point
+
+	public ParetoArchive(int dimensions, int slotCount) {
+		this.dimensions = dimensions;
+		this.slotCount = slotCount;
+		this.vectors = new int[16 * dimensions];
+		this.sums = new int[16];
+		this.permutations = new int[16 * slotCount];
+		this.scores = new long[16];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int[] getPermutation(int index) {
+		return Arrays.copyOfRange(this.permutations, index * slotCount, (index + 1) * slotCount);
+	}
+
+	//merges the archives into one
+	//the points of all archives are taken in order of decreasing sum (then score), so a point can only be dominated by one taken before it and nothing has to be removed
+	public static ParetoArchive merge(ArrayList<ParetoArchive> archives) {
+		ParetoArchive first = archives.get(0);
+		int dimensions = first.dimensions;
+		int slotCount = first.slotCount;
+		//collect the points of all archives
+		int total = 0;
+		for(ParetoArchive a : archives) {
+			total += a.size;
+		}
+		int[] allVectors = new int[total * dimensions];
+		int[] allSums = new int[total];
+		int[] allPermutations = new int[total * slotCount];
+		long[] allScores = new long[total];
+		int count = 0;
+		for(ParetoArchive a : archives) {
+			System.arraycopy(a.vectors, 0, allVectors, count * dimensions, a.size * dimensions);
+			System.arraycopy(a.sums, 0, allSums, count, a.size);
+			System.arraycopy(a.permutations, 0, allPermutations, count * slotCount, a.size * slotCount);
+			System.arraycopy(a.scores, 0, allScores, count, a.size);
+			count += a.size;
+		}
+		Integer[] order = new Integer[total];
+		for(int i = 0; i < total; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> allSums[a] != allSums[b] ? Integer.compare(allSums[b], allSums[a]) : Long.compare(allScores[b], allScores[a]));
+		//keep the sorted points that no point kept before them dominates
+		ParetoArchive merged = new ParetoArchive(dimensions, slotCount);
+		merged.vectors = new int[Math.max(total, 1) * dimensions];
+		merged.sums = new int[Math.max(total, 1)];
+		merged.permutations = new int[Math.max(total, 1) * slotCount];
+		merged.scores = new long[Math.max(total, 1)];
+		for(int point : order) {
+			boolean dominated = false;
+			for(int i = 0; i < merged.size; i++) {
+				if(merged.dominates(i, allVectors, point * dimensions, allScores[point])) {
+					dominated = true;
+					break;
+				}
+			}
+			if(!dominated) {
+				System.arraycopy(allVectors, point * dimensions, merged.vectors, merged.size * dimensions, dimensions);
+				System.arraycopy(allPermutations, point * slotCount, merged.permutations, merged.size * slotCount, slotCount);
+				merged.sums[merged.size] = allSums[point];
+				merged.scores[merged.size] = allScores[point];
+				merged.size++;
+			}
+		}
+		return merged;
+	}
+
+	//adds the loadout unless a point in the archive dominates it, removing the points it dominates; returns true if it was added
+	public boolean offer(int[] vector, int[] permutation, long score) {
+		if(lastDominator >= 0 && dominates(lastDominator, vector, 0, score)) {
+			return false;
+		}
+		int sum = 0;
+		for(int value : vector) {
+			sum += value;
+		}
+		//only points with at least the same sum can dominate the candidate
+		int end = firstBelow(sum);
+		for(int i = 0; i < end; i++) {
+			if(dominates(i, vector, 0, score)) {
+				lastDominator = i;
+				return false;
+			}
+		}
+		//only points with at most the same sum can be dominated by the candidate; remove them while keeping the order
+		int write = firstAtMost(sum);
+		for(int read = write; read < size; read++) {
+			if(!isDominatedBy(read, vector, score)) {
+				if(read != write) {
+					System.arraycopy(vectors, read * dimensions, vectors, write * dimensions, dimensions);
+					sums[write] = sums[read];
+					System.arraycopy(permutations, read * slotCount, permutations, write * slotCount, slotCount);
+					scores[write] = scores[read];
+				}
+				write++;
+			}
+		}
+		size = write;
+		//insert the candidate after the points with a higher sum
+		int position = firstAtMost(sum);
+		if(size == scores.length) {
+			vectors = Arrays.copyOf(vectors, vectors.length * 2);
+			sums = Arrays.copyOf(sums, sums.length * 2);
+			permutations = Arrays.copyOf(permutations, permutations.length * 2);
+			scores = Arrays.copyOf(scores, scores.length * 2);
+		}
+		System.arraycopy(vectors, position * dimensions, vectors, (position + 1) * dimensions, (size - position) * dimensions);
+		System.arraycopy(sums, position, sums, position + 1, size - position);
+		System.arraycopy(permutations, position * slotCount, permutations, (position + 1) * slotCount, (size - position) * slotCount);
+		System.arraycopy(scores, position, scores, position + 1, size - position);
+		System.arraycopy(vector, 0, vectors, position * dimensions, dimensions);
+		sums[position] = sum;
+		System.arraycopy(permutation, 0, permutations, position * slotCount, slotCount);
+		scores[position] = score;
+		size++;
+		lastDominator = -1;
+		return true;
+	}
+
+	//true if point index is at least as good as the candidate (stored in vector from vectorOffset) in every dimension and better in one, or has the same vector and at least the same score
+	private boolean dominates(int index, int[] vector, int vectorOffset, long score) {
+		int offset = index * dimensions;
+		boolean better = false;
+		for(int d = 0; d < dimensions; d++) {
+			int value = vectors[offset + d];
+			if(value < vector[vectorOffset + d]) {
+				return false;
+			}
+			if(value > vector[vectorOffset + d]) {
+				better = true;
+			}
+		}
+		return better || scores[index] >= score;
+	}
+
+	//true if the candidate is at least as good as point index in every dimension and better in one, or has the same vector and a higher score
+	private boolean isDominatedBy(int index, int[] vector, long score) {
+		int offset = index * dimensions;
+		boolean better = false;
+		for(int d = 0; d < dimensions; d++) {
+			int value = vectors[offset + d];
+			if(vector[d] < value) {
+				return false;
+			}
+			if(vector[d] > value) {
+				better = true;
+			}
+		}
+		return better || score > scores[index];
+	}
+
+	//index of the first point whose sum is below value
+	private int firstBelow(int value) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sums[middle] >= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	//index of the first point whose sum is at most value
+	private int firstAtMost(int value) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sums[middle] > value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,60 @@
+/**
+Worker process for a sharded search (see Coordinator).
+Receives the query from the coordinator, then evaluates each range of permutation ranks it is handed with THREAD_COUNT local threads and replies with the best result.
+*/
+
+import java.util.*;
+import java.io.*;
+import java.net.*;
+
+public class Worker {
+	public static void run(int port) {
+		//connect to the coordinator, retrying until it is listening
+		Socket socket = null;
+		while(socket == null) {
+			try {
+				socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			} catch(IOException e) {
+				try {
+					Thread.sleep(1000);
+				} catch(InterruptedException ie) {
+					return;
+				}
+			}
+		}
+		try(Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream()));
+				PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream()), true)) {
+			Optimizer.readQuery(in);
+			while(true) {
+				String line = in.readLine();
+				if(line == null || line.equals("DONE")) {
+					break;
+				}
+				//RANGE;startRank;endRank
+				String[] fields = line.split(";");
+				if(fields.length != 3 || !fields[0].equals("RANGE")) {
+					throw new IOException("unexpected message from coordinator: " + line);
+				}
+				long startRank = Long.parseLong(fields[1]);
+				long endRank = Long.parseLong(fields[2]);
+				ArrayList<Calculator> threads = Optimizer.createThreads(startRank, endRank);
+				for(Calculator c : threads) {
+					c.start();
+				}
+				for(Calculator c : threads) {
+					try {
+						c.join();
+					} catch(InterruptedException e) {
+						//do nothing
+					}
+				}
+				Calculator best = Optimizer.bestResult(threads);
+				out.println("RESULT;" + startRank + ";" + endRank + ";" + (best.isFound() ? Optimizer.joinInts(best.getBestPermutation()) : "none"));
+			}
+		} catch(IOException | NumberFormatException e) {
+			//disconnecting hands the range back to the coordinator
+			System.out.println("Stopping: " + e.getMessage());
+		}
+	}
+}